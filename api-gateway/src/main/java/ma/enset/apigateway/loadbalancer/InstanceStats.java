@@ -0,0 +1,76 @@
+package ma.enset.apigateway.loadbalancer;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+// Latence moyenne pondérée (EWMA) dans le temps et requêtes en cours d'une instance
+class InstanceStats {
+    // Constante de temps : une mesure perd ~63 % de son poids au bout de 10 s
+    private static final double DECAY_NANOS = TimeUnit.SECONDS.toNanos(10);
+    // Une requête annulée (déconnexion client...) ne déclenche jamais onComplete : elle cesse
+    // d'être comptée en cours au bout de ce délai au lieu de pénaliser l'instance indéfiniment
+    static final long IN_FLIGHT_TIMEOUT_NANOS = TimeUnit.SECONDS.toNanos(30);
+    // Une mesure ne peut dépasser ce multiple de la moyenne : un pic isolé ne met pas l'instance à l'écart
+    // pendant des dizaines de secondes, un ralentissement réel est atteint en quelques réponses (x5, x25...)
+    static final double MAX_SAMPLE_FACTOR = 5;
+
+    // Requête -> instant de début, par identité (une même requête est passée à onStartRequest et onComplete)
+    private final Map<Object, Long> inFlight = new IdentityHashMap<>();
+    private double ewmaNanos;
+    private long lastUpdateNanos;
+    private boolean firstResponseSeen;
+
+    synchronized void requestStarted(Object request, long nowNanos) {
+        expireStale(nowNanos);
+        inFlight.put(request, nowNanos);
+    }
+
+    // Renvoie l'instant de début de la requête, ou null si elle est inconnue ou déjà expirée
+    synchronized Long requestCompleted(Object request) {
+        return inFlight.remove(request);
+    }
+
+    synchronized int inFlight(long nowNanos) {
+        expireStale(nowNanos);
+        return inFlight.size();
+    }
+
+    synchronized void observe(long latencyNanos, long nowNanos) {
+        // Première réponse d'une instance (nouvelle connexion, chargement de classes, JIT) : ~1 s au lieu de
+        // quelques ms, elle écarterait une instance qui vient d'arriver ; on ne la compte pas
+        if (!firstResponseSeen) {
+            firstResponseSeen = true;
+            return;
+        }
+        if (lastUpdateNanos == 0) {
+            ewmaNanos = latencyNanos;
+        } else if (latencyNanos > ewmaNanos) {
+            // "Peak EWMA" : une réponse plus lente que la moyenne (pause GC...) est prise en compte immédiatement,
+            // dans la limite de MAX_SAMPLE_FACTOR ; les réponses rapides ne la font redescendre que progressivement
+            ewmaNanos = Math.min(latencyNanos, ewmaNanos * MAX_SAMPLE_FACTOR);
+        } else {
+            double weight = Math.exp(-Math.max(nowNanos - lastUpdateNanos, 0) / DECAY_NANOS);
+            ewmaNanos = ewmaNanos * weight + latencyNanos * (1 - weight);
+        }
+        lastUpdateNanos = nowNanos;
+    }
+
+    // Un échec n'est ni ignoré ni plafonné : l'instance est écartée dès la première erreur
+    synchronized void observeFailure(long penalizedLatencyNanos, long nowNanos) {
+        firstResponseSeen = true;
+        ewmaNanos = Math.max(ewmaNanos, penalizedLatencyNanos);
+        lastUpdateNanos = nowNanos;
+    }
+
+    // Plus le score est bas, meilleure est l'instance ; une instance jamais mesurée est essayée en priorité.
+    // La latence décroît aussi sans nouvelle mesure, pour qu'une instance écartée finisse par être réessayée
+    synchronized double score(long nowNanos) {
+        double decayed = ewmaNanos * Math.exp(-Math.max(nowNanos - lastUpdateNanos, 0) / DECAY_NANOS);
+        return (decayed + 1) * (inFlight(nowNanos) + 1);
+    }
+
+    private void expireStale(long nowNanos) {
+        inFlight.values().removeIf(startTime -> nowNanos - startTime > IN_FLIGHT_TIMEOUT_NANOS);
+    }
+}
@@ -0,0 +1,128 @@
+package ma.enset.apigateway.loadbalancer;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.*;
+import org.springframework.cloud.loadbalancer.core.NoopServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.core.ReactorServiceInstanceLoadBalancer;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * "Power of two choices" : on tire deux instances au hasard et on garde celle dont le score
+ * (latence moyenne EWMA x requêtes en cours) est le plus bas. Une instance lente ou en pause GC
+ * reçoit donc moins de trafic qu'avec le round-robin par défaut.
+ * Implémente aussi LoadBalancerLifecycle pour mesurer chaque appel (routes lb:// de la gateway).
+ */
+@Slf4j
+public class LatencyAwareLoadBalancer implements ReactorServiceInstanceLoadBalancer,
+        LoadBalancerLifecycle<Object, Object, ServiceInstance> {
+    // Un échec (exception ou réponse 5xx) compte au moins comme une réponse lente
+    static final long FAILURE_PENALTY_NANOS = TimeUnit.SECONDS.toNanos(1);
+
+    private final ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider;
+    private final String serviceId;
+    private final Map<String, InstanceStats> stats = new ConcurrentHashMap<>();
+    private final LongSupplier nanoClock;
+
+    public LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                                    String serviceId) {
+        this(serviceInstanceListSupplierProvider, serviceId, System::nanoTime);
+    }
+
+    // Horloge injectable pour les tests
+    LatencyAwareLoadBalancer(ObjectProvider<ServiceInstanceListSupplier> serviceInstanceListSupplierProvider,
+                             String serviceId, LongSupplier nanoClock) {
+        this.serviceInstanceListSupplierProvider = serviceInstanceListSupplierProvider;
+        this.serviceId = serviceId;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Response<ServiceInstance>> choose(Request request) {
+        ServiceInstanceListSupplier supplier = serviceInstanceListSupplierProvider
+                .getIfAvailable(NoopServiceInstanceListSupplier::new);
+        return supplier.get(request).next().map(this::choose);
+    }
+
+    Response<ServiceInstance> choose(List<ServiceInstance> instances) {
+        if (instances.isEmpty()) {
+            log.warn("LB: Aucune instance disponible pour {}", serviceId);
+            return new EmptyResponse();
+        }
+        if (instances.size() == 1) return new DefaultResponse(instances.get(0));
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int first = random.nextInt(instances.size());
+        int second = random.nextInt(instances.size() - 1);
+        if (second >= first) second++;
+
+        ServiceInstance a = instances.get(first);
+        ServiceInstance b = instances.get(second);
+        long now = nanoClock.getAsLong();
+        return new DefaultResponse(statsFor(a).score(now) <= statsFor(b).score(now) ? a : b);
+    }
+
+    @Override
+    public boolean supports(Class requestContextClass, Class responseClass, Class serverTypeClass) {
+        return ServiceInstance.class.isAssignableFrom(serverTypeClass);
+    }
+
+    @Override
+    public void onStart(Request<Object> request) {
+    }
+
+    @Override
+    public void onStartRequest(Request<Object> request, Response<ServiceInstance> lbResponse) {
+        if (!lbResponse.hasServer()) return;
+        long now = nanoClock.getAsLong();
+        if (request.getContext() instanceof TimedRequestContext context) {
+            context.setRequestStartTime(now);
+        }
+        statsFor(lbResponse.getServer()).requestStarted(request, now);
+    }
+
+    @Override
+    public void onComplete(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        Response<ServiceInstance> lbResponse = completionContext.getLoadBalancerResponse();
+        if (lbResponse == null || !lbResponse.hasServer()) return;
+
+        Request<Object> request = completionContext.getLoadBalancerRequest();
+        Long startTime = statsFor(lbResponse.getServer()).requestCompleted(request);
+        // Requête déjà expirée des requêtes en cours : on retrouve son début via le contexte
+        if (startTime == null && request != null && request.getContext() instanceof TimedRequestContext context
+                && context.getRequestStartTime() != 0) {
+            startTime = context.getRequestStartTime();
+        }
+        if (startTime == null) return;
+
+        long now = nanoClock.getAsLong();
+        long latency = now - startTime;
+        if (isFailure(completionContext)) {
+            statsFor(lbResponse.getServer()).observeFailure(Math.max(latency, FAILURE_PENALTY_NANOS), now);
+        } else {
+            statsFor(lbResponse.getServer()).observe(latency, now);
+        }
+    }
+
+    // Feign, WebClient et la gateway signalent SUCCESS quel que soit le code HTTP : une instance qui répond
+    // 500 en 2 ms (base de données tombée...) aurait sinon la meilleure latence et attirerait le trafic
+    private static boolean isFailure(CompletionContext<Object, ServiceInstance, Object> completionContext) {
+        if (completionContext.status() == CompletionContext.Status.FAILED) return true;
+        return completionContext.getClientResponse() instanceof ResponseData responseData
+                && responseData.getHttpStatus() != null
+                && responseData.getHttpStatus().is5xxServerError();
+    }
+
+    InstanceStats statsFor(ServiceInstance instance) {
+        return stats.computeIfAbsent(instance.getHost() + ":" + instance.getPort(), key -> new InstanceStats());
+    }
+}
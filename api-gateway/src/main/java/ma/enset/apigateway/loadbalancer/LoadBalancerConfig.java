@@ -0,0 +1,10 @@
+package ma.enset.apigateway.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// Remplace le round-robin par défaut pour toutes les routes lb://
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfig.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,97 @@
+package ma.enset.apigateway.loadbalancer;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import reactor.core.publisher.Mono;
+
+import java.io.IOException;
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Vraie gateway (route lb://product-service) devant trois instances HTTP locales, dont une lente
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT,
+        properties = "eureka.client.enabled=false")
+class LatencyAwareLoadBalancerIntegrationTests {
+    private static final String PRODUCT_JSON = "{\"id\":1,\"name\":\"Stub\",\"price\":10.0,\"stockQuantity\":5}";
+
+    private static DelayedHttpStub fast1;
+    private static DelayedHttpStub fast2;
+    private static DelayedHttpStub slow;
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private LoadBalancerClientFactory loadBalancerClientFactory;
+
+    @BeforeAll
+    static void startStubs() throws IOException {
+        fast1 = new DelayedHttpStub(5, PRODUCT_JSON);
+        fast2 = new DelayedHttpStub(5, PRODUCT_JSON);
+        slow = new DelayedHttpStub(150, PRODUCT_JSON);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        fast1.close();
+        fast2.close();
+        slow.close();
+    }
+
+    // Instances déclarées via SimpleDiscoveryClient à la place d'Eureka
+    @DynamicPropertySource
+    static void registerStubs(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[0].uri", () -> fast1.uri());
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[1].uri", () -> fast2.uri());
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[2].uri", () -> slow.uri());
+    }
+
+    @Test
+    void latencyAwareBalancerReplacesRoundRobin() {
+        assertThat(loadBalancerClientFactory.getInstance("product-service"))
+                .isInstanceOf(LatencyAwareLoadBalancer.class);
+    }
+
+    @Test
+    void gatewayRoutesFavourFastInstances() {
+        WebTestClient client = webTestClient.mutate().responseTimeout(Duration.ofSeconds(10)).build();
+
+        // Démarrage à froid, sans échauffement : la première requête (chargement de classes, connexion)
+        // prend ~1 s et ne doit pas écarter l'instance rapide qui la reçoit
+        int requests = 150;
+        sendRequests(client, requests);
+
+        // Le round-robin enverrait ~50 requêtes à chaque instance
+        assertThat(fast1.hits() + fast2.hits() + slow.hits()).isEqualTo(requests);
+        assertThat(slow.hits()).isLessThan(requests / 6);
+    }
+
+    private void sendRequests(WebTestClient client, int count) {
+        for (int i = 0; i < count; i++) {
+            client.get().uri("/api/products/1")
+                    .header("Authorization", "Bearer test-token")
+                    .exchange()
+                    .expectStatus().isOk();
+        }
+    }
+
+    @TestConfiguration
+    static class JwtTestConfig {
+        // Accepte n'importe quel jeton : le test porte sur le routage, pas sur Keycloak
+        @Bean
+        ReactiveJwtDecoder jwtDecoder() {
+            return token -> Mono.just(Jwt.withTokenValue(token).header("alg", "none").subject("test").build());
+        }
+    }
+}
@@ -1,11 +1,12 @@
 package ma.enset.orderservice;
 
+import ma.enset.orderservice.aot.OrderServiceRuntimeHints;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
-@EnableFeignClients
+@ImportRuntimeHints(OrderServiceRuntimeHints.class)
 public class OrderServiceApplication {
 
     public static void main(String[] args) {
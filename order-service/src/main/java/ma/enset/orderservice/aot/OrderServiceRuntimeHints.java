@@ -0,0 +1,32 @@
+package ma.enset.orderservice.aot;
+
+import ma.enset.orderservice.entities.*;
+import ma.enset.orderservice.feign.ProductRestClient;
+import ma.enset.orderservice.model.Product;
+import ma.enset.orderservice.security.JwtAuthConverter;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+// Indices de réflexion et de proxy pour l'image native (profil Maven "native")
+public class OrderServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(JwtAuthConverter.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Feign crée un proxy JDK de l'interface et lit ses annotations Spring MVC à l'exécution
+        hints.proxies().registerJdkProxy(ProductRestClient.class);
+        hints.reflection().registerType(ProductRestClient.class, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Entités JPA / R2DBC : accès aux champs et (dé)sérialisation Jackson
+        for (Class<?> entity : new Class<?>[]{Order.class, ProductItem.class, OrderRecord.class, ProductItemRecord.class}) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(),
+                Order.class, ProductItem.class, OrderStatus.class, Product.class);
+    }
+}
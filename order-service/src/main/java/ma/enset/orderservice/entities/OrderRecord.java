@@ -0,0 +1,19 @@
+package ma.enset.orderservice.entities;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+import java.time.LocalDateTime;
+
+// Ligne de la table "orders" vue par R2DBC (profil reactive) : pas de relation, les items sont chargés à part
+@Table("orders")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class OrderRecord {
+    @Id
+    private Long id;
+    private LocalDateTime createdAt;
+    private Integer status; // ordinal de OrderStatus, comme le mapping JPA par défaut
+    private String customerId;
+    private double totalAmount;
+}
@@ -0,0 +1,18 @@
+package ma.enset.orderservice.entities;
+
+import lombok.*;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.relational.core.mapping.Table;
+
+// Ligne de la table "product_item" vue par R2DBC (profil reactive)
+@Table("product_item")
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class ProductItemRecord {
+    @Id
+    private Long id;
+    private Long productId;
+    private double price;
+    private int quantity;
+    private Long orderId;
+    private String productName;
+}
@@ -2,6 +2,7 @@ package ma.enset.orderservice.exception;
 
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -12,6 +13,7 @@ import java.util.Map;
 
 @Slf4j
 @ControllerAdvice
+@Profile("!reactive")
 public class GlobalExceptionHandler {
 
     @ExceptionHandler(Exception.class)
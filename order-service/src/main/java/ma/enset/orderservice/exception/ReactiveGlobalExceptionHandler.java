@@ -0,0 +1,33 @@
+package ma.enset.orderservice.exception;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+@Slf4j
+@ControllerAdvice
+@Profile("reactive")
+public class ReactiveGlobalExceptionHandler {
+
+    @ExceptionHandler(Exception.class)
+    public Mono<ResponseEntity<Map<String, String>>> handleAllExceptions(Exception ex) {
+        // En WebFlux l'utilisateur est porté par le contexte Reactor, pas par le thread
+        return ReactiveSecurityContextHolder.getContext()
+                .map(context -> context.getAuthentication().getName())
+                .defaultIfEmpty("anonymous")
+                .map(user -> {
+                    log.error("TRACE-ERROR: Utilisateur [{}] a déclenché une exception : {}", user, ex.getMessage());
+                    return new ResponseEntity<>(
+                            Map.of("error", String.valueOf(ex.getMessage()), "user", user),
+                            HttpStatus.INTERNAL_SERVER_ERROR
+                    );
+                });
+    }
+}
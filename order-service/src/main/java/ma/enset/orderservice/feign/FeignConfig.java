@@ -0,0 +1,12 @@
+package ma.enset.orderservice.feign;
+
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+// Les clients Feign (bloquants) ne sont activés que pour la pile servlet
+@Configuration
+@Profile("!reactive")
+@EnableFeignClients
+public class FeignConfig {
+}
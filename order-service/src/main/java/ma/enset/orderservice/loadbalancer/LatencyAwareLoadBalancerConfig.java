@@ -0,0 +1,18 @@
+package ma.enset.orderservice.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.env.Environment;
+
+// Configuration par client (contexte enfant de chaque service) : volontairement sans @Configuration
+public class LatencyAwareLoadBalancerConfig {
+
+    @Bean
+    public LatencyAwareLoadBalancer latencyAwareLoadBalancer(Environment environment,
+                                                             LoadBalancerClientFactory loadBalancerClientFactory) {
+        String serviceId = environment.getProperty(LoadBalancerClientFactory.PROPERTY_NAME);
+        return new LatencyAwareLoadBalancer(
+                loadBalancerClientFactory.getLazyProvider(serviceId, ServiceInstanceListSupplier.class), serviceId);
+    }
+}
@@ -0,0 +1,10 @@
+package ma.enset.orderservice.loadbalancer;
+
+import org.springframework.cloud.loadbalancer.annotation.LoadBalancerClients;
+import org.springframework.context.annotation.Configuration;
+
+// Remplace le round-robin par défaut pour les appels Feign (et WebClient en profil reactive) vers product-service
+@Configuration
+@LoadBalancerClients(defaultConfiguration = LatencyAwareLoadBalancerConfig.class)
+public class LoadBalancerConfig {
+}
@@ -0,0 +1,9 @@
+package ma.enset.orderservice.repository;
+
+import ma.enset.orderservice.entities.OrderRecord;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+public interface OrderRecordRepository extends ReactiveCrudRepository<OrderRecord, Long> {
+    Flux<OrderRecord> findByCustomerId(String subject);
+}
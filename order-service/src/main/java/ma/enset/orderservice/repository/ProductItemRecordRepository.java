@@ -0,0 +1,9 @@
+package ma.enset.orderservice.repository;
+
+import ma.enset.orderservice.entities.ProductItemRecord;
+import org.springframework.data.repository.reactive.ReactiveCrudRepository;
+import reactor.core.publisher.Flux;
+
+public interface ProductItemRecordRepository extends ReactiveCrudRepository<ProductItemRecord, Long> {
+    Flux<ProductItemRecord> findByOrderId(Long orderId);
+}
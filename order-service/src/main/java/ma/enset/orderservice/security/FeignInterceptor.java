@@ -3,12 +3,14 @@ package ma.enset.orderservice.security;
 
 import feign.RequestInterceptor;
 import feign.RequestTemplate;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
 import org.springframework.stereotype.Component;
 
 @Component
+@Profile("!reactive")
 public class FeignInterceptor implements RequestInterceptor {
     @Override
     public void apply(RequestTemplate template) {
@@ -7,6 +7,7 @@ import ma.enset.orderservice.entities.ProductItem;
 import ma.enset.orderservice.feign.ProductRestClient;
 import ma.enset.orderservice.model.Product;
 import ma.enset.orderservice.repository.OrderRepository;
+import org.springframework.context.annotation.Profile;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
@@ -18,6 +19,7 @@ import java.util.Map;
 
 @Slf4j
 @RestController
+@Profile("!reactive")
 @RequestMapping("/api/orders")
 public class OrderController {
     private final OrderRepository orderRepository;
@@ -0,0 +1,182 @@
+package ma.enset.orderservice.web;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.orderservice.entities.*;
+import ma.enset.orderservice.repository.OrderRecordRepository;
+import ma.enset.orderservice.repository.ProductItemRecordRepository;
+import ma.enset.orderservice.webclient.ReactiveProductClient;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.annotation.AuthenticationPrincipal;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.bind.annotation.*;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+// Mêmes endpoints que OrderController, sans thread bloqué pendant les appels à product-service
+@Slf4j
+@RestController
+@Profile("reactive")
+@RequestMapping("/api/orders")
+public class ReactiveOrderController {
+    private final OrderRecordRepository orderRecordRepository;
+    private final ProductItemRecordRepository productItemRecordRepository;
+    private final ReactiveProductClient productClient;
+    private final TransactionalOperator transactionalOperator;
+
+    public ReactiveOrderController(OrderRecordRepository orderRecordRepository,
+                                   ProductItemRecordRepository productItemRecordRepository,
+                                   ReactiveProductClient productClient,
+                                   TransactionalOperator transactionalOperator) {
+        this.orderRecordRepository = orderRecordRepository;
+        this.productItemRecordRepository = productItemRecordRepository;
+        this.productClient = productClient;
+        this.transactionalOperator = transactionalOperator;
+    }
+
+    @GetMapping("/{id}")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    public Mono<Order> getOrder(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt) {
+        log.info("TRACE-LOG: Utilisateur [{}] consulte la commande #{}", jwt.getClaimAsString("preferred_username"), id);
+        return orderRecordRepository.findById(id)
+                .switchIfEmpty(Mono.error(new NoSuchElementException("No value present")))
+                .flatMap(this::withItems);
+    }
+
+    @GetMapping("/my-orders")
+    @PreAuthorize("hasRole('CLIENT')")
+    public Flux<Order> getMyOrders(@AuthenticationPrincipal Jwt jwt) {
+        String username = jwt.getClaimAsString("preferred_username");
+        log.info("TRACE-LOG: Utilisateur [{}] consulte son historique de commandes", username);
+        return orderRecordRepository.findByCustomerId(jwt.getSubject()).flatMapSequential(this::withItems);
+    }
+
+    @GetMapping
+    @PreAuthorize("hasRole('ADMIN')")
+    public Flux<Order> getAllOrders(@AuthenticationPrincipal Jwt jwt) {
+        log.warn("TRACE-SECURITY: ADMIN [{}] liste TOUTES les commandes du système", jwt.getClaimAsString("preferred_username"));
+        return orderRecordRepository.findAll().flatMapSequential(this::withItems);
+    }
+
+    @PostMapping
+    @PreAuthorize("hasRole('CLIENT')")
+    public Mono<Order> createOrder(@RequestBody List<ProductItem> items, @AuthenticationPrincipal Jwt jwt) {
+        String username = jwt.getClaimAsString("preferred_username");
+        log.info("TRACE-LOG: Utilisateur [{}] lance une création de commande ({} types de produits)", username, items.size());
+
+        // Réduction du stock puis lecture du produit, article par article comme la version Feign
+        return Flux.fromIterable(items)
+                .concatMap(item -> productClient.reduceStock(item.getProductId(), item.getQuantity())
+                        .then(productClient.getProductById(item.getProductId()))
+                        .map(p -> {
+                            item.setProductName(p.getName());
+                            item.setPrice(p.getPrice());
+                            log.debug("Détail Commande: Produit {} ajouté (Qté: {})", p.getName(), item.getQuantity());
+                            return item;
+                        }))
+                .collectList()
+                .flatMap(pricedItems -> saveOrder(pricedItems, jwt.getSubject()))
+                .doOnNext(savedOrder -> log.info("TRACE-SUCCESS: Commande #{} enregistrée pour [{}] - Total: {} DH",
+                        savedOrder.getId(), username, savedOrder.getTotalAmount()));
+    }
+
+    @PutMapping("/{id}/cancel")
+    @PreAuthorize("hasRole('CLIENT')")
+    public Mono<Order> cancelOrder(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt) {
+        log.warn("TRACE-LOG: Utilisateur [{}] demande l'annulation de la commande #{}", jwt.getClaimAsString("preferred_username"), id);
+        return orderRecordRepository.findById(id)
+                .switchIfEmpty(Mono.error(new NoSuchElementException("No value present")))
+                .flatMap(order -> {
+                    if (order.getStatus() == OrderStatus.CANCELED.ordinal()) {
+                        return Mono.error(new RuntimeException("Commande déjà annulée"));
+                    }
+                    order.setStatus(OrderStatus.CANCELED.ordinal());
+                    return orderRecordRepository.save(order);
+                })
+                .flatMap(this::withItems);
+    }
+
+    @GetMapping("/stats")
+    @PreAuthorize("hasRole('ADMIN')")
+    public Mono<Map<String, Object>> getOrderStats(@AuthenticationPrincipal Jwt jwt) {
+        log.info("TRACE-LOG: ADMIN [{}] accède aux statistiques financières globales", jwt.getClaimAsString("preferred_username"));
+        return orderRecordRepository.findAll().collectList().map(orders -> Map.of(
+                "totalOrders", orders.size(),
+                "totalRevenue", orders.stream()
+                        .filter(o -> o.getStatus() != OrderStatus.CANCELED.ordinal())
+                        .mapToDouble(OrderRecord::getTotalAmount).sum(),
+                "canceledOrders", orders.stream().filter(o -> o.getStatus() == OrderStatus.CANCELED.ordinal()).count()
+        ));
+    }
+
+    @GetMapping("/my-stats")
+    @PreAuthorize("hasRole('CLIENT')")
+    public Mono<Map<String, Object>> getMyPersonalStats(@AuthenticationPrincipal Jwt jwt) {
+        log.info("TRACE-LOG: Client [{}] consulte son tableau de bord personnel", jwt.getClaimAsString("preferred_username"));
+        return orderRecordRepository.findByCustomerId(jwt.getSubject()).collectList().map(myOrders -> Map.of(
+                "count", myOrders.size(),
+                "spent", myOrders.stream()
+                        .filter(o -> o.getStatus() != OrderStatus.CANCELED.ordinal())
+                        .mapToDouble(OrderRecord::getTotalAmount).sum(),
+                "active", myOrders.stream().filter(o -> o.getStatus() == OrderStatus.CREATED.ordinal()).count()
+        ));
+    }
+
+    // Commande et lignes enregistrées dans une même transaction R2DBC
+    private Mono<Order> saveOrder(List<ProductItem> items, String customerId) {
+        OrderRecord record = OrderRecord.builder()
+                .createdAt(LocalDateTime.now())
+                .status(OrderStatus.CREATED.ordinal())
+                .customerId(customerId)
+                .totalAmount(items.stream().mapToDouble(i -> i.getPrice() * i.getQuantity()).sum())
+                .build();
+
+        return orderRecordRepository.save(record)
+                .flatMap(savedOrder -> Flux.fromIterable(items)
+                        .map(item -> ProductItemRecord.builder()
+                                .productId(item.getProductId())
+                                .price(item.getPrice())
+                                .quantity(item.getQuantity())
+                                .productName(item.getProductName())
+                                .orderId(savedOrder.getId())
+                                .build())
+                        .concatMap(productItemRecordRepository::save)
+                        .collectList()
+                        .map(savedItems -> toOrder(savedOrder, savedItems)))
+                .as(transactionalOperator::transactional);
+    }
+
+    private Mono<Order> withItems(OrderRecord record) {
+        return productItemRecordRepository.findByOrderId(record.getId())
+                .collectList()
+                .map(items -> toOrder(record, items));
+    }
+
+    // Même représentation JSON que la version JPA
+    private Order toOrder(OrderRecord record, List<ProductItemRecord> items) {
+        return Order.builder()
+                .id(record.getId())
+                .createdAt(Date.from(record.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant()))
+                .status(OrderStatus.values()[record.getStatus()])
+                .customerId(record.getCustomerId())
+                .totalAmount(record.getTotalAmount())
+                .productItems(items.stream()
+                        .map(item -> ProductItem.builder()
+                                .id(item.getId())
+                                .productId(item.getProductId())
+                                .price(item.getPrice())
+                                .quantity(item.getQuantity())
+                                .productName(item.getProductName())
+                                .build())
+                        .toList())
+                .build();
+    }
+}
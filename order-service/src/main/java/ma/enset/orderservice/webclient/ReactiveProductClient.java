@@ -0,0 +1,35 @@
+package ma.enset.orderservice.webclient;
+
+import ma.enset.orderservice.model.Product;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+// Équivalent non bloquant de ProductRestClient (Feign)
+@Component
+@Profile("reactive")
+public class ReactiveProductClient {
+    private final WebClient webClient;
+
+    public ReactiveProductClient(WebClient.Builder loadBalancedWebClientBuilder) {
+        // clone() : le builder @LoadBalanced est un singleton partagé, baseUrl() le modifierait pour tous
+        this.webClient = loadBalancedWebClientBuilder.clone().baseUrl("http://product-service").build();
+    }
+
+    public Mono<Product> getProductById(Long id) {
+        return webClient.get()
+                .uri("/api/products/{id}", id)
+                .retrieve()
+                .bodyToMono(Product.class);
+    }
+
+    public Mono<Void> reduceStock(Long id, int quantity) {
+        return webClient.put()
+                .uri(uriBuilder -> uriBuilder.path("/api/products/{id}/reduce-stock")
+                        .queryParam("quantity", quantity)
+                        .build(id))
+                .retrieve()
+                .bodyToMono(Void.class);
+    }
+}
@@ -0,0 +1,35 @@
+package ma.enset.orderservice.webclient;
+
+import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.oauth2.server.resource.authentication.JwtAuthenticationToken;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+@Configuration
+@Profile("reactive")
+public class WebClientConfig {
+
+    // WebClient résolu via Eureka (lb) et propageant le JWT de l'appelant, équivalent du FeignInterceptor
+    @Bean
+    @LoadBalanced
+    public WebClient.Builder loadBalancedWebClientBuilder() {
+        return WebClient.builder().filter(jwtRelay());
+    }
+
+    private ExchangeFilterFunction jwtRelay() {
+        return (request, next) -> ReactiveSecurityContextHolder.getContext()
+                .map(SecurityContext::getAuthentication)
+                .filter(JwtAuthenticationToken.class::isInstance)
+                .map(authentication -> ClientRequest.from(request)
+                        .headers(headers -> headers.setBearerAuth(((JwtAuthenticationToken) authentication).getToken().getTokenValue()))
+                        .build())
+                .defaultIfEmpty(request)
+                .flatMap(next::exchange);
+    }
+}
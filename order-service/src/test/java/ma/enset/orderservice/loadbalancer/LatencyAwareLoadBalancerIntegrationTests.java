@@ -0,0 +1,114 @@
+package ma.enset.orderservice.loadbalancer;
+
+import ma.enset.orderservice.feign.ProductRestClient;
+import ma.enset.orderservice.webclient.ReactiveProductClient;
+import ma.enset.orderservice.webclient.WebClientConfig;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.cloud.loadbalancer.support.LoadBalancerClientFactory;
+import org.springframework.cloud.openfeign.EnableFeignClients;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.annotation.DirtiesContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Vrais appels Feign et WebClient @LoadBalanced vers trois instances HTTP locales, dont une lente.
+// Profil "reactive" pour disposer du WebClient ; le client Feign est activé explicitement ci-dessous.
+@SpringBootTest(classes = LatencyAwareLoadBalancerIntegrationTests.TestApplication.class,
+        properties = {"spring.main.web-application-type=none", "eureka.client.enabled=false"})
+@ActiveProfiles("reactive")
+@DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_EACH_TEST_METHOD) // statistiques neuves pour chaque client
+class LatencyAwareLoadBalancerIntegrationTests {
+    private static final String PRODUCT_JSON = "{\"id\":1,\"name\":\"Stub\",\"price\":10.0,\"stockQuantity\":5}";
+    private static final int REQUESTS = 150;
+
+    private static DelayedHttpStub fast1;
+    private static DelayedHttpStub fast2;
+    private static DelayedHttpStub slow;
+
+    @Autowired
+    private ProductRestClient productRestClient;
+    @Autowired
+    private ReactiveProductClient reactiveProductClient;
+    @Autowired
+    private LoadBalancerClientFactory loadBalancerClientFactory;
+
+    @BeforeAll
+    static void startStubs() throws IOException {
+        fast1 = new DelayedHttpStub(5, PRODUCT_JSON);
+        fast2 = new DelayedHttpStub(5, PRODUCT_JSON);
+        slow = new DelayedHttpStub(150, PRODUCT_JSON);
+    }
+
+    @AfterAll
+    static void stopStubs() {
+        fast1.close();
+        fast2.close();
+        slow.close();
+    }
+
+    // Instances déclarées via SimpleDiscoveryClient à la place d'Eureka
+    @DynamicPropertySource
+    static void registerStubs(DynamicPropertyRegistry registry) {
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[0].uri", () -> fast1.uri());
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[1].uri", () -> fast2.uri());
+        registry.add("spring.cloud.discovery.client.simple.instances.product-service[2].uri", () -> slow.uri());
+    }
+
+    @BeforeEach
+    void resetHits() {
+        fast1.resetHits();
+        fast2.resetHits();
+        slow.resetHits();
+    }
+
+    @Test
+    void latencyAwareBalancerReplacesRoundRobin() {
+        assertThat(loadBalancerClientFactory.getInstance("product-service"))
+                .isInstanceOf(LatencyAwareLoadBalancer.class);
+    }
+
+    @Test
+    void feignCallsFavourFastInstances() {
+        // Démarrage à froid, sans échauffement : la première requête (chargement de classes, connexion)
+        // prend ~1 s et ne doit pas écarter l'instance rapide qui la reçoit
+        for (int i = 0; i < REQUESTS; i++) {
+            assertThat(productRestClient.getProductById(1L).getName()).isEqualTo("Stub");
+        }
+
+        assertFastInstancesFavoured();
+    }
+
+    @Test
+    void webClientCallsFavourFastInstances() {
+        for (int i = 0; i < REQUESTS; i++) {
+            assertThat(reactiveProductClient.getProductById(1L).block().getName()).isEqualTo("Stub");
+        }
+
+        assertFastInstancesFavoured();
+    }
+
+    // Le round-robin enverrait ~50 requêtes à chaque instance
+    private void assertFastInstancesFavoured() {
+        assertThat(fast1.hits() + fast2.hits() + slow.hits()).isEqualTo(REQUESTS);
+        assertThat(slow.hits()).isLessThan(REQUESTS / 6);
+    }
+
+    @SpringBootConfiguration
+    @EnableAutoConfiguration
+    @EnableFeignClients(clients = ProductRestClient.class)
+    @Import({LoadBalancerConfig.class, WebClientConfig.class, ReactiveProductClient.class})
+    static class TestApplication {
+    }
+}
@@ -0,0 +1,188 @@
+package ma.enset.orderservice.loadbalancer;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.support.StaticListableBeanFactory;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.*;
+import org.springframework.cloud.loadbalancer.core.ServiceInstanceListSupplier;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.util.LinkedMultiValueMap;
+import reactor.core.publisher.Flux;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Tests unitaires de l'algorithme, avec une horloge simulée
+class LatencyAwareLoadBalancerTests {
+    private static final String SERVICE_ID = "product-service";
+
+    private final ServiceInstance fast1 = instance(8081);
+    private final ServiceInstance fast2 = instance(8083);
+    private final ServiceInstance slow = instance(8085);
+    // Temps de réponse simulés par instance
+    private final Map<Integer, Long> delaysMillis = Map.of(8081, 10L, 8083, 12L, 8085, 250L);
+
+    private final AtomicLong clock = new AtomicLong(TimeUnit.SECONDS.toNanos(1));
+    private final LatencyAwareLoadBalancer loadBalancer = new LatencyAwareLoadBalancer(
+            new StaticListableBeanFactory(Map.of("supplier", supplier(List.of(fast1, fast2, slow))))
+                    .getBeanProvider(ServiceInstanceListSupplier.class),
+            SERVICE_ID, clock::get);
+
+    @Test
+    void slowInstanceReceivesLessTraffic() {
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            ServiceInstance chosen = callOnce();
+            hits.merge(chosen.getPort(), 1, Integer::sum);
+        }
+
+        // Le round-robin donnerait ~1000 requêtes à chaque instance
+        assertThat(hits.getOrDefault(8085, 0)).isLessThan(300);
+        assertThat(hits.get(8081) + hits.get(8083)).isGreaterThan(2700);
+    }
+
+    @Test
+    void instanceWithManyRequestsInFlightIsAvoided() {
+        for (int i = 0; i < 30; i++) callOnce();
+        // fast1 est rapide mais a 50 requêtes en cours : son score dépasse même celui de l'instance lente
+        startWithoutCompleting(fast1, 50);
+
+        assertThat(chooseMany(300).getOrDefault(8081, 0)).isZero();
+    }
+
+    @Test
+    void cancelledRequestsStopCountingAsInFlight() {
+        for (int i = 0; i < 30; i++) callOnce();
+        // Échanges annulés : onStartRequest sans onComplete
+        startWithoutCompleting(fast1, 50);
+        assertThat(loadBalancer.statsFor(fast1).inFlight(clock.get())).isEqualTo(50);
+
+        clock.addAndGet(InstanceStats.IN_FLIGHT_TIMEOUT_NANOS + 1);
+
+        assertThat(loadBalancer.statsFor(fast1).inFlight(clock.get())).isZero();
+        assertThat(chooseMany(300).getOrDefault(8081, 0)).isGreaterThan(50);
+    }
+
+    @Test
+    void lateCompletionAfterExpiryIsStillMeasured() {
+        complete(slow, 250); // première réponse, non comptée
+        DefaultRequest<Object> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> response = new DefaultResponse(slow);
+        loadBalancer.onStartRequest(request, response);
+
+        clock.addAndGet(InstanceStats.IN_FLIGHT_TIMEOUT_NANOS + TimeUnit.SECONDS.toNanos(5));
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+
+        // 35 s de latence mesurée : l'instance est écartée face à une instance jamais mesurée
+        assertThat(loadBalancer.statsFor(slow).score(clock.get()))
+                .isGreaterThan(loadBalancer.statsFor(fast1).score(clock.get()));
+        assertThat(loadBalancer.statsFor(slow).inFlight(clock.get())).isZero();
+    }
+
+    @Test
+    void slowFirstResponseDoesNotBenchNewInstance() {
+        // Instance qui vient de démarrer : première réponse à 800 ms (connexion, chargement de classes)
+        complete(fast1, 800);
+
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (int i = 0; i < 300; i++) {
+            hits.merge(callOnce().getPort(), 1, Integer::sum);
+        }
+
+        // Prise telle quelle, cette mesure écarterait fast1 pendant ~50 s (10 s x ln(800/10))
+        assertThat(hits.getOrDefault(8081, 0)).isGreaterThan(100);
+    }
+
+    @Test
+    void sustainedSlowdownIsStillDetectedQuickly() {
+        complete(fast1, 10);
+        complete(fast1, 10);
+        for (int i = 0; i < 3; i++) complete(fast1, 800);
+
+        // Plafonnée à 5x la moyenne, la latence rejoint 800 ms en trois réponses (10 -> 50 -> 250 -> 800)
+        assertThat(loadBalancer.statsFor(fast1).score(clock.get()))
+                .isGreaterThanOrEqualTo(TimeUnit.MILLISECONDS.toNanos(790));
+    }
+
+    @Test
+    void fastInstanceAnsweringServerErrorsLosesTraffic() {
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (int i = 0; i < 3000; i++) {
+            // fast1 répond 500 en 2 ms : status SUCCESS côté client, mais la réponse est une erreur
+            ServiceInstance chosen = callOnce(fast1);
+            hits.merge(chosen.getPort(), 1, Integer::sum);
+        }
+
+        // Sans pénalité, fast1 aurait la meilleure latence et recevrait la majorité des requêtes
+        assertThat(hits.getOrDefault(8081, 0)).isLessThan(300);
+        assertThat(hits.get(8083)).isGreaterThan(1500);
+    }
+
+    // Simule un appel complet : choix, début de requête, réponse après le délai de l'instance
+    private ServiceInstance callOnce() {
+        return callOnce(null);
+    }
+
+    // Même chose, mais l'instance "failing" répond immédiatement par une erreur HTTP 500
+    private ServiceInstance callOnce(ServiceInstance failing) {
+        DefaultRequest<Object> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> response = loadBalancer.choose(request).block();
+        ServiceInstance chosen = response.getServer();
+        boolean fails = chosen.equals(failing);
+
+        loadBalancer.onStartRequest(request, response);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(fails ? 2 : delaysMillis.get(chosen.getPort())));
+        ResponseData responseData = new ResponseData(HttpStatusCode.valueOf(fails ? 500 : 200),
+                new HttpHeaders(), new LinkedMultiValueMap<>(), null);
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response, responseData));
+        return chosen;
+    }
+
+    // Appel vers une instance imposée, avec une latence donnée
+    private void complete(ServiceInstance instance, long latencyMillis) {
+        DefaultRequest<Object> request = new DefaultRequest<>(new RequestDataContext());
+        Response<ServiceInstance> response = new DefaultResponse(instance);
+        loadBalancer.onStartRequest(request, response);
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(latencyMillis));
+        loadBalancer.onComplete(new CompletionContext<>(CompletionContext.Status.SUCCESS, request, response));
+    }
+
+    private void startWithoutCompleting(ServiceInstance instance, int count) {
+        for (int i = 0; i < count; i++) {
+            loadBalancer.onStartRequest(new DefaultRequest<>(new RequestDataContext()), new DefaultResponse(instance));
+        }
+    }
+
+    private Map<Integer, Integer> chooseMany(int count) {
+        Map<Integer, Integer> hits = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            hits.merge(loadBalancer.choose(new DefaultRequest<>()).block().getServer().getPort(), 1, Integer::sum);
+        }
+        return hits;
+    }
+
+    private static ServiceInstance instance(int port) {
+        return new DefaultServiceInstance(SERVICE_ID + ":" + port, SERVICE_ID, "localhost", port, false);
+    }
+
+    private static ServiceInstanceListSupplier supplier(List<ServiceInstance> instances) {
+        return new ServiceInstanceListSupplier() {
+            @Override
+            public String getServiceId() {
+                return SERVICE_ID;
+            }
+
+            @Override
+            public Flux<List<ServiceInstance>> get() {
+                return Flux.just(instances);
+            }
+        };
+    }
+}
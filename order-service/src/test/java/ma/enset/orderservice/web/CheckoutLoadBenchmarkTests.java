@@ -0,0 +1,232 @@
+package ma.enset.orderservice.web;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.orderservice.loadbalancer.DelayedHttpStub;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Checkout (POST /api/orders) sous charge : pile servlet (JPA + Feign) contre profil reactive (R2DBC + WebClient).
+// Chaque variante tourne dans sa propre JVM avec les mêmes limites CPU/mémoire, un JWT factice (LoadTestOrderService)
+// et un product-service simulé qui répond en PRODUCT_DELAY_MILLIS. PostgreSQL de docker-compose requis (order_db).
+// Lancé uniquement avec mvn test -Pbenchmark
+@Slf4j
+@Tag("benchmark")
+class CheckoutLoadBenchmarkTests {
+    private static final List<String> JVM_LIMITS = List.of("-Xmx256m", "-XX:ActiveProcessorCount=1");
+    private static final long PRODUCT_DELAY_MILLIS = 50;
+    private static final int[] CONCURRENCY = {50, 200, 400};
+    private static final Duration WARM_UP = Duration.ofSeconds(20);
+    private static final Duration MEASURE = Duration.ofSeconds(20);
+    private static final String ORDER_JSON = "[{\"productId\":1,\"quantity\":1}]";
+    private static final String PRODUCT_JSON = "{\"id\":1,\"name\":\"Clavier\",\"price\":250.0,\"stockQuantity\":8}";
+    private static final String ORDER_DB_URL = "jdbc:postgresql://localhost:5434/order_db";
+    // USER_HZ de /proc/<pid>/stat, 100 sur les noyaux Linux courants
+    private static final long CLOCK_TICKS_PER_SECOND = 100;
+
+    private final HttpClient httpClient = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .build();
+
+    @AfterAll
+    static void deleteBenchmarkOrders() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(ORDER_DB_URL, "user", "password");
+             Statement statement = connection.createStatement()) {
+            statement.executeUpdate("DELETE FROM product_item WHERE order_id IN (SELECT id FROM orders WHERE customer_id LIKE 'bench-%')");
+            statement.executeUpdate("DELETE FROM orders WHERE customer_id LIKE 'bench-%'");
+        }
+    }
+
+    @Test
+    void reactiveVariantServesCheckoutLoadWithFewerThreads() throws Exception {
+        Map<String, List<LoadResult>> results = new LinkedHashMap<>();
+        try (DelayedHttpStub productService = new DelayedHttpStub(PRODUCT_DELAY_MILLIS, PRODUCT_JSON)) {
+            // La pile servlet d'abord : elle crée les tables (ddl-auto) que le profil reactive réutilise
+            results.put("servlet", runVariant("servlet", List.of(), productService));
+            results.put("reactive", runVariant("reactive", List.of("--spring.profiles.active=reactive"), productService));
+        }
+
+        results.forEach((variant, loads) -> loads.forEach(load ->
+                log.info("BENCH-CHECKOUT: {} {}, product-service à {} ms -> {}", variant, JVM_LIMITS, PRODUCT_DELAY_MILLIS, load)));
+
+        for (List<LoadResult> loads : results.values()) {
+            assertThat(loads).allSatisfy(load -> {
+                assertThat(load.errors()).isZero();
+                assertThat(load.completed()).isPositive();
+            });
+        }
+        // Un thread Tomcat par commande en attente de product-service, contre une boucle d'événements par cœur
+        LoadResult servletPeak = results.get("servlet").get(CONCURRENCY.length - 1);
+        LoadResult reactivePeak = results.get("reactive").get(CONCURRENCY.length - 1);
+        assertThat(reactivePeak.maxThreads()).isLessThan(servletPeak.maxThreads());
+    }
+
+    private List<LoadResult> runVariant(String variant, List<String> profileArgs, DelayedHttpStub productService) throws Exception {
+        int port = freePort();
+        List<String> command = new ArrayList<>();
+        command.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(JVM_LIMITS);
+        command.addAll(List.of("-cp", System.getProperty("surefire.test.class.path", System.getProperty("java.class.path")),
+                LoadTestOrderService.class.getName(),
+                "--server.port=" + port,
+                "--eureka.client.enabled=false",
+                "--spring.cloud.discovery.client.simple.instances.product-service[0].uri=" + productService.uri(),
+                // Même taille de pool que R2DBC (application-reactive.yml)
+                "--spring.datasource.hikari.maximum-pool-size=20",
+                "--logging.level.root=WARN"));
+        command.addAll(profileArgs);
+
+        Path logFile = Files.createTempFile("checkout-" + variant, ".log");
+        Process process = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(logFile.toFile()).start();
+        try {
+            URI baseUri = URI.create("http://localhost:" + port);
+            awaitStarted(baseUri, process, logFile);
+            List<LoadResult> loads = new ArrayList<>();
+            for (int concurrency : CONCURRENCY) {
+                loads.add(load(baseUri, process.pid(), concurrency));
+            }
+            return loads;
+        } finally {
+            process.destroy();
+            process.waitFor(30, TimeUnit.SECONDS);
+        }
+    }
+
+    // Boucle fermée : chaque client virtuel renvoie une commande dès qu'il a reçu la réponse précédente
+    private LoadResult load(URI baseUri, long pid, int concurrency) throws Exception {
+        long measureFrom = System.nanoTime() + WARM_UP.toNanos();
+        long end = measureFrom + MEASURE.toNanos();
+        ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+        AtomicInteger errors = new AtomicInteger();
+        AtomicInteger maxThreads = new AtomicInteger();
+        AtomicLong maxRssKb = new AtomicLong();
+
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        sampler.scheduleAtFixedRate(() -> {
+            if (System.nanoTime() < measureFrom) return;
+            Map<String, Long> status = procStatus(pid);
+            maxThreads.accumulateAndGet(status.getOrDefault("Threads", 0L).intValue(), Math::max);
+            maxRssKb.accumulateAndGet(status.getOrDefault("VmRSS", 0L), Math::max);
+        }, 0, 200, TimeUnit.MILLISECONDS);
+
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int c = 0; c < concurrency; c++) {
+            HttpRequest request = HttpRequest.newBuilder(baseUri.resolve("/api/orders"))
+                    .header("Authorization", "Bearer bench-" + c)
+                    .header("Content-Type", "application/json")
+                    .timeout(Duration.ofSeconds(30))
+                    .POST(HttpRequest.BodyPublishers.ofString(ORDER_JSON))
+                    .build();
+            futures.add(clients.submit(() -> {
+                while (System.nanoTime() < end) {
+                    long begin = System.nanoTime();
+                    int status;
+                    try {
+                        status = httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    }
+                    if (begin < measureFrom) continue;
+                    if (status == 200) latencies.add(System.nanoTime() - begin);
+                    else errors.incrementAndGet();
+                }
+                return null;
+            }));
+        }
+        TimeUnit.NANOSECONDS.sleep(measureFrom - System.nanoTime());
+        long cpuTicksAtStart = cpuTicks(pid);
+        for (Future<?> future : futures) future.get();
+        long cpuMillis = (cpuTicks(pid) - cpuTicksAtStart) * 1000 / CLOCK_TICKS_PER_SECOND;
+        clients.shutdown();
+        sampler.shutdown();
+
+        long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+        return new LoadResult(concurrency, sorted.length, errors.get(),
+                sorted.length / (double) MEASURE.toSeconds(),
+                percentileMillis(sorted, 0.50), percentileMillis(sorted, 0.99),
+                sorted.length == 0 ? 0 : cpuMillis / (double) sorted.length,
+                maxThreads.get(), maxRssKb.get() / 1024);
+    }
+
+    private void awaitStarted(URI baseUri, Process process, Path logFile) throws Exception {
+        HttpRequest health = HttpRequest.newBuilder(baseUri.resolve("/actuator/health")).build();
+        long deadline = System.nanoTime() + Duration.ofMinutes(2).toNanos();
+        while (System.nanoTime() < deadline) {
+            if (!process.isAlive()) break;
+            try {
+                httpClient.send(health, HttpResponse.BodyHandlers.discarding());
+                return;
+            } catch (IOException e) {
+                Thread.sleep(500);
+            }
+        }
+        throw new IllegalStateException("order-service n'a pas démarré, voir " + logFile);
+    }
+
+    // Nombre de threads et mémoire résidente (Ko) du processus, lus dans /proc (Linux)
+    private static Map<String, Long> procStatus(long pid) {
+        Map<String, Long> status = new LinkedHashMap<>();
+        try {
+            for (String line : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                String[] parts = line.split(":\\s+");
+                if (parts[0].equals("Threads") || parts[0].equals("VmRSS")) {
+                    status.put(parts[0], Long.parseLong(parts[1].replace(" kB", "").trim()));
+                }
+            }
+        } catch (IOException e) {
+            // Processus terminé ou système sans /proc : pas d'échantillon
+        }
+        return status;
+    }
+
+    // Temps CPU (utilisateur + système) consommé par le processus depuis son lancement, champs 14 et 15 de /proc/<pid>/stat
+    private static long cpuTicks(long pid) throws IOException {
+        String stat = Files.readString(Path.of("/proc", String.valueOf(pid), "stat"));
+        String[] fields = stat.substring(stat.lastIndexOf(')') + 2).split(" ");
+        return Long.parseLong(fields[11]) + Long.parseLong(fields[12]);
+    }
+
+    private static double percentileMillis(long[] sortedNanos, double percentile) {
+        if (sortedNanos.length == 0) return 0;
+        return sortedNanos[(int) Math.ceil(percentile * sortedNanos.length) - 1] / 1e6;
+    }
+
+    private static int freePort() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            return socket.getLocalPort();
+        }
+    }
+
+    record LoadResult(int concurrency, int completed, int errors, double ordersPerSecond,
+                      double p50Millis, double p99Millis, double cpuMillisPerOrder, int maxThreads, long maxRssMb) {
+        @Override
+        public String toString() {
+            return String.format("%d clients : %.0f commandes/s, p50 %.0f ms, p99 %.0f ms, %d erreurs, CPU %.1f ms/commande, %d threads, RSS %d Mo",
+                    concurrency, ordersPerSecond, p50Millis, p99Millis, errors, cpuMillisPerOrder, maxThreads, maxRssMb);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package ma.enset.orderservice.web;
+
+import ma.enset.orderservice.OrderServiceApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.type.classreading.MetadataReader;
+import org.springframework.core.type.classreading.MetadataReaderFactory;
+import org.springframework.security.oauth2.jwt.Jwt;
+import org.springframework.security.oauth2.jwt.JwtDecoder;
+import org.springframework.security.oauth2.jwt.ReactiveJwtDecoder;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.Map;
+
+// order-service lancé par CheckoutLoadBenchmarkTests dans sa propre JVM, sans Keycloak :
+// le jeton "bench-N" est accepté tel quel comme client N (rôle CLIENT), pour les piles servlet et réactive
+public class LoadTestOrderService {
+
+    public static void main(String[] args) {
+        new SpringApplicationBuilder(OrderServiceApplication.class, StubJwtDecoders.class)
+                .initializers(context -> context.getBeanFactory()
+                        .registerSingleton("excludeTestConfigurations", new ExcludeTestConfigurations()))
+                .run(args);
+    }
+
+    // Le scan de @SpringBootApplication voit aussi target/test-classes : les @TestConfiguration des autres tests
+    // (faux ReactiveProductClient, etc.) en sont écartées
+    static class ExcludeTestConfigurations extends TypeExcludeFilter {
+        @Override
+        public boolean match(MetadataReader metadataReader, MetadataReaderFactory metadataReaderFactory) {
+            return metadataReader.getAnnotationMetadata().hasAnnotation(TestConfiguration.class.getName());
+        }
+    }
+
+    @TestConfiguration
+    static class StubJwtDecoders {
+        @Bean
+        JwtDecoder jwtDecoder() {
+            return StubJwtDecoders::client;
+        }
+
+        @Bean
+        ReactiveJwtDecoder reactiveJwtDecoder() {
+            return token -> Mono.just(client(token));
+        }
+
+        private static Jwt client(String token) {
+            return Jwt.withTokenValue(token)
+                    .header("alg", "none")
+                    .subject(token)
+                    .claim("preferred_username", token)
+                    .claim("realm_access", Map.of("roles", List.of("CLIENT")))
+                    .build();
+        }
+    }
+}
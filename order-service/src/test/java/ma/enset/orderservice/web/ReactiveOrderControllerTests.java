@@ -0,0 +1,183 @@
+package ma.enset.orderservice.web;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import ma.enset.orderservice.entities.*;
+import ma.enset.orderservice.repository.OrderRecordRepository;
+import ma.enset.orderservice.repository.ProductItemRecordRepository;
+import ma.enset.orderservice.security.JwtAuthConverter;
+import ma.enset.orderservice.security.ReactiveSecurityConfig;
+import ma.enset.orderservice.webclient.ReactiveProductClient;
+import ma.enset.orderservice.webclient.WebClientConfig;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.reactive.WebFluxTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.JwtMutator;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+import static org.springframework.security.test.web.reactive.server.SecurityMockServerConfigurers.mockJwt;
+
+// Tranche WebFlux du profil reactive : sécurité, relais du JWT vers product-service et JSON identique à la version JPA
+@WebFluxTest(ReactiveOrderController.class)
+@ActiveProfiles("reactive")
+@Import({ReactiveSecurityConfig.class, JwtAuthConverter.class})
+class ReactiveOrderControllerTests {
+    private static final String TOKEN = "token-client";
+    private static final String PRODUCT_JSON = "{\"id\":1,\"name\":\"Clavier\",\"price\":250.0,\"stockQuantity\":8}";
+
+    // Requêtes sortantes vers product-service, interceptées avant le réseau
+    private static final List<ClientRequest> productServiceCalls = new CopyOnWriteArrayList<>();
+
+    @Autowired
+    private WebTestClient webTestClient;
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @MockBean
+    private OrderRecordRepository orderRecordRepository;
+    @MockBean
+    private ProductItemRecordRepository productItemRecordRepository;
+    @MockBean
+    private TransactionalOperator transactionalOperator;
+
+    // Vrai ReactiveProductClient (filtre jwtRelay compris), seul l'échange HTTP est simulé
+    @TestConfiguration
+    static class ProductServiceStub {
+        @Bean
+        ReactiveProductClient reactiveProductClient() {
+            return new ReactiveProductClient(new WebClientConfig().loadBalancedWebClientBuilder()
+                    .exchangeFunction(request -> {
+                        productServiceCalls.add(request);
+                        if (request.method() == HttpMethod.PUT) {
+                            return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+                        }
+                        return Mono.just(ClientResponse.create(HttpStatus.OK)
+                                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                                .body(PRODUCT_JSON)
+                                .build());
+                    }));
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        productServiceCalls.clear();
+        when(transactionalOperator.transactional(any(Mono.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void getOrderReturnsSameJsonAsJpaVariant() throws Exception {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 1, 10, 30);
+        when(orderRecordRepository.findById(5L)).thenReturn(Mono.just(OrderRecord.builder()
+                .id(5L).createdAt(createdAt).status(OrderStatus.CREATED.ordinal())
+                .customerId("user-1").totalAmount(500).build()));
+        when(productItemRecordRepository.findByOrderId(5L)).thenReturn(Flux.just(ProductItemRecord.builder()
+                .id(9L).productId(1L).price(250).quantity(2).orderId(5L).productName("Clavier").build()));
+
+        Order expected = jpaOrder(5L, createdAt, "user-1", List.of(
+                ProductItem.builder().id(9L).productId(1L).price(250).quantity(2).productName("Clavier").build()));
+
+        webTestClient.mutateWith(client())
+                .get().uri("/api/orders/5")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody().json(objectMapper.writeValueAsString(expected), true);
+    }
+
+    @Test
+    void createOrderRelaysCallerJwtToProductService() throws Exception {
+        AtomicReference<OrderRecord> savedOrder = new AtomicReference<>();
+        when(orderRecordRepository.save(any(OrderRecord.class))).thenAnswer(invocation -> {
+            OrderRecord record = invocation.getArgument(0);
+            record.setId(7L);
+            savedOrder.set(record);
+            return Mono.just(record);
+        });
+        when(productItemRecordRepository.save(any(ProductItemRecord.class))).thenAnswer(invocation -> {
+            ProductItemRecord item = invocation.getArgument(0);
+            item.setId(11L);
+            return Mono.just(item);
+        });
+
+        String responseBody = webTestClient.mutateWith(client())
+                .post().uri("/api/orders")
+                .contentType(MediaType.APPLICATION_JSON)
+                .bodyValue("[{\"productId\":1,\"quantity\":2}]")
+                .exchange()
+                .expectStatus().isOk()
+                .expectBody(String.class).returnResult().getResponseBody();
+
+        Order expected = jpaOrder(7L, savedOrder.get().getCreatedAt(), "user-1", List.of(
+                ProductItem.builder().id(11L).productId(1L).price(250).quantity(2).productName("Clavier").build()));
+        assertThat(objectMapper.readTree(responseBody)).isEqualTo(objectMapper.readTree(objectMapper.writeValueAsString(expected)));
+
+        assertThat(productServiceCalls).extracting(request -> request.method() + " " + request.url())
+                .containsExactly(
+                        "PUT http://product-service/api/products/1/reduce-stock?quantity=2",
+                        "GET http://product-service/api/products/1");
+        assertThat(productServiceCalls).allSatisfy(request ->
+                assertThat(request.headers().getFirst(HttpHeaders.AUTHORIZATION)).isEqualTo("Bearer " + TOKEN));
+    }
+
+    // Comme en JPA, le refus de @PreAuthorize passe par le handler global : 500 avec le message d'erreur
+    @Test
+    void adminEndpointIsDeniedToClientLikeJpaVariant() {
+        webTestClient.mutateWith(client())
+                .get().uri("/api/orders")
+                .exchange()
+                .expectStatus().isEqualTo(HttpStatus.INTERNAL_SERVER_ERROR)
+                .expectBody().jsonPath("$.error").isEqualTo("Access Denied");
+    }
+
+    @Test
+    void requestWithoutTokenIsRejected() {
+        webTestClient.get().uri("/api/orders/5")
+                .exchange()
+                .expectStatus().isUnauthorized();
+    }
+
+    private static JwtMutator client() {
+        return mockJwt()
+                .jwt(jwt -> jwt.tokenValue(TOKEN).subject("user-1").claim("preferred_username", "alice"))
+                .authorities(new SimpleGrantedAuthority("ROLE_CLIENT"));
+    }
+
+    // Commande telle que la renvoie OrderController : entité JPA avec la référence inverse des lignes
+    private static Order jpaOrder(Long id, LocalDateTime createdAt, String customerId, List<ProductItem> items) {
+        Order order = Order.builder()
+                .id(id)
+                .createdAt(Date.from(createdAt.atZone(ZoneId.systemDefault()).toInstant()))
+                .status(OrderStatus.CREATED)
+                .customerId(customerId)
+                .totalAmount(items.stream().mapToDouble(i -> i.getPrice() * i.getQuantity()).sum())
+                .productItems(items)
+                .build();
+        items.forEach(item -> item.setOrder(order));
+        return order;
+    }
+}
@@ -0,0 +1,41 @@
+package ma.enset.orderservice.webclient;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ReactiveProductClientTests {
+    private final List<ClientRequest> requests = new CopyOnWriteArrayList<>();
+    private final WebClient.Builder sharedBuilder = new WebClientConfig().loadBalancedWebClientBuilder()
+            .exchangeFunction(request -> {
+                requests.add(request);
+                return Mono.just(ClientResponse.create(HttpStatus.OK).build());
+            });
+
+    @Test
+    void sharedLoadBalancedBuilderKeepsNoBaseUrl() {
+        new ReactiveProductClient(sharedBuilder);
+
+        sharedBuilder.build().get().uri("/ping").retrieve().toBodilessEntity().block();
+
+        assertThat(requests).extracting(ClientRequest::url).containsExactly(URI.create("/ping"));
+    }
+
+    @Test
+    void noAuthorizationHeaderWithoutAuthenticatedCaller() {
+        new ReactiveProductClient(sharedBuilder).reduceStock(1L, 2).block();
+
+        assertThat(requests).hasSize(1);
+        assertThat(requests.get(0).headers().containsKey(HttpHeaders.AUTHORIZATION)).isFalse();
+    }
+}
@@ -1,14 +1,17 @@
 package ma.enset.productservice;
 
 
+import ma.enset.productservice.aot.ProductServiceRuntimeHints;
 import ma.enset.productservice.entities.Product;
 import ma.enset.productservice.repository.ProductRepository;
 import org.springframework.boot.CommandLineRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ImportRuntimeHints;
 
 @SpringBootApplication
+@ImportRuntimeHints(ProductServiceRuntimeHints.class)
 public class ProductServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(ProductServiceApplication.class, args);
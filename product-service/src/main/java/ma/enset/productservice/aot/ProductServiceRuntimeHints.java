@@ -0,0 +1,26 @@
+package ma.enset.productservice.aot;
+
+import ma.enset.productservice.entities.Product;
+import ma.enset.productservice.entities.StockShard;
+import ma.enset.productservice.security.JwtAuthConverter;
+import org.springframework.aot.hint.BindingReflectionHintsRegistrar;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+
+// Indices de réflexion pour l'image native (profil Maven "native")
+public class ProductServiceRuntimeHints implements RuntimeHintsRegistrar {
+
+    @Override
+    public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+        hints.reflection().registerType(JwtAuthConverter.class,
+                MemberCategory.INVOKE_PUBLIC_CONSTRUCTORS, MemberCategory.INVOKE_PUBLIC_METHODS);
+
+        // Entités JPA : accès aux champs par Hibernate et (dé)sérialisation Jackson
+        for (Class<?> entity : new Class<?>[]{Product.class, StockShard.class}) {
+            hints.reflection().registerType(entity,
+                    MemberCategory.DECLARED_FIELDS, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS, MemberCategory.INVOKE_DECLARED_METHODS);
+        }
+        new BindingReflectionHintsRegistrar().registerReflectionHints(hints.reflection(), Product.class);
+    }
+}
@@ -1,6 +1,7 @@
 package ma.enset.productservice.entities;
 
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -17,4 +18,11 @@ public class Product {
     private String description;
     private double price;
     private int stockQuantity;
-}
\ No newline at end of file
+    // Nombre de sous-compteurs de stock (null ou <= 1 : stock classique sur la ligne produit)
+    private Integer stockShards;
+
+    @JsonIgnore
+    public boolean isStriped() {
+        return stockShards != null && stockShards > 1;
+    }
+}
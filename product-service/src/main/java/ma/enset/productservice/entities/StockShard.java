@@ -0,0 +1,16 @@
+package ma.enset.productservice.entities;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+@Entity
+@Table(uniqueConstraints = @UniqueConstraint(columnNames = {"productId", "shardIndex"}))
+@Data @NoArgsConstructor @AllArgsConstructor @Builder
+public class StockShard {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    private Long productId;
+    private int shardIndex;
+    private int quantity;
+}
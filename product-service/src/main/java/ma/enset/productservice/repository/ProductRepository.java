@@ -2,7 +2,24 @@ package ma.enset.productservice.repository;
 
 
 import ma.enset.productservice.entities.Product;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 public interface ProductRepository extends JpaRepository<Product, Long> {
-}
\ No newline at end of file
+    // Nombre maximal de produits classés et comptés par recherche
+    int MAX_SEARCH_CANDIDATES = 1000;
+
+    // Recherche plein texte classée (index GIN sur search_vector, cf. schema.sql).
+    // Seuls les MAX_SEARCH_CANDIDATES premiers résultats sont classés par ts_rank : au-delà, la saisie est trop vague
+    // pour que le classement ait un sens, et calculer ts_rank + count(*) sur tout le catalogue à chaque frappe coûte cher
+    @Query(value = "SELECT * FROM (SELECT * FROM product WHERE search_vector @@ to_tsquery('simple', :query) " +
+            "LIMIT " + MAX_SEARCH_CANDIDATES + ") candidate " +
+            "ORDER BY ts_rank(search_vector, to_tsquery('simple', :query)) DESC, id",
+            countQuery = "SELECT count(*) FROM (SELECT 1 FROM product WHERE search_vector @@ to_tsquery('simple', :query) " +
+                    "LIMIT " + MAX_SEARCH_CANDIDATES + ") candidate",
+            nativeQuery = true)
+    Page<Product> search(@Param("query") String query, Pageable pageable);
+}
@@ -0,0 +1,41 @@
+package ma.enset.productservice.repository;
+
+import jakarta.persistence.LockModeType;
+import ma.enset.productservice.entities.StockShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+public interface StockShardRepository extends JpaRepository<StockShard, Long> {
+    List<StockShard> findByProductIdOrderByShardIndex(Long productId);
+
+    // Verrouillage de tous les sous-compteurs, toujours dans le même ordre pour éviter les deadlocks
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from StockShard s where s.productId = :productId order by s.shardIndex")
+    List<StockShard> lockByProductId(@Param("productId") Long productId);
+
+    // Décrément atomique et conditionnel : renvoie 0 si le sous-compteur n'a pas assez de stock.
+    // Transaction propre : un UPDATE qui a attendu une ligne puis échoué garde son verrou jusqu'au commit
+    @Transactional
+    @Modifying
+    @Query("update StockShard s set s.quantity = s.quantity - :quantity " +
+            "where s.productId = :productId and s.shardIndex = :shardIndex and s.quantity >= :quantity")
+    int tryDecrement(@Param("productId") Long productId, @Param("shardIndex") int shardIndex, @Param("quantity") int quantity);
+
+    @Query("select coalesce(sum(s.quantity), 0) from StockShard s where s.productId = :productId")
+    long sumByProductId(@Param("productId") Long productId);
+
+    // Limité aux produits demandés : appelé à chaque recherche (autocomplétion)
+    @Query("select s.productId, sum(s.quantity) from StockShard s where s.productId in :productIds group by s.productId")
+    List<Object[]> sumByProductIds(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query("delete from StockShard s where s.productId = :productId")
+    void deleteByProductId(@Param("productId") Long productId);
+}
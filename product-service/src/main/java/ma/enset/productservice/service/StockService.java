@@ -0,0 +1,119 @@
+package ma.enset.productservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.productservice.entities.Product;
+import ma.enset.productservice.entities.StockShard;
+import ma.enset.productservice.repository.StockShardRepository;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+
+/**
+ * Stock "strié" pour les produits très demandés : le stock est réparti sur plusieurs
+ * sous-compteurs afin que les réductions concurrentes ne se bloquent pas sur une seule ligne.
+ * Product.stockQuantity reste la somme exposée au frontend.
+ */
+@Slf4j
+@Service
+public class StockService {
+    // Au-delà, le gain de débit est nul et chaque réduction peut parcourir autant de lignes
+    public static final int MAX_STOCK_SHARDS = 64;
+
+    private final StockShardRepository stockShardRepository;
+    private final TransactionTemplate transactionTemplate;
+
+    public StockService(StockShardRepository stockShardRepository, TransactionTemplate transactionTemplate) {
+        this.stockShardRepository = stockShardRepository;
+        this.transactionTemplate = transactionTemplate;
+    }
+
+    // null : stock classique ; sinon entre 1 et MAX_STOCK_SHARDS, à vérifier avant d'enregistrer le produit
+    public static void checkStockShards(Integer stockShards) {
+        if (stockShards != null && (stockShards < 1 || stockShards > MAX_STOCK_SHARDS)) {
+            throw new RuntimeException("stockShards doit être compris entre 1 et " + MAX_STOCK_SHARDS);
+        }
+    }
+
+    // (Re)répartit équitablement le stock du produit sur ses sous-compteurs
+    @Transactional
+    public void redistribute(Product product) {
+        checkStockShards(product.getStockShards());
+        stockShardRepository.deleteByProductId(product.getId());
+        if (!product.isStriped()) return;
+
+        int shards = product.getStockShards();
+        int base = product.getStockQuantity() / shards;
+        int remainder = product.getStockQuantity() % shards;
+        List<StockShard> stockShards = new ArrayList<>();
+        for (int i = 0; i < shards; i++) {
+            stockShards.add(StockShard.builder()
+                    .productId(product.getId())
+                    .shardIndex(i)
+                    .quantity(base + (i < remainder ? 1 : 0))
+                    .build());
+        }
+        stockShardRepository.saveAll(stockShards);
+        log.info("TRACE-STOCK: Stock du produit #{} réparti sur {} sous-compteurs", product.getId(), shards);
+    }
+
+    @Transactional
+    public void deleteShards(Long productId) {
+        stockShardRepository.deleteByProductId(productId);
+    }
+
+    // Volontairement sans transaction englobante : chaque tentative valide seule, sinon les verrous
+    // gardés par les tentatives échouées (dans un ordre aléatoire) provoquent des deadlocks avec l'étape 2
+    public void reduceStock(Product product, int quantity) {
+        int shards = product.getStockShards();
+
+        // 1. Tentative sur un sous-compteur tiré au hasard, puis sur les suivants s'il est épuisé
+        int start = ThreadLocalRandom.current().nextInt(shards);
+        for (int i = 0; i < shards; i++) {
+            if (stockShardRepository.tryDecrement(product.getId(), (start + i) % shards, quantity) == 1) return;
+        }
+
+        // 2. Aucun sous-compteur ne suffit seul : on verrouille l'ensemble et on puise dans plusieurs
+        transactionTemplate.executeWithoutResult(status -> drain(product, quantity));
+    }
+
+    private void drain(Product product, int quantity) {
+        List<StockShard> locked = stockShardRepository.lockByProductId(product.getId());
+        int available = locked.stream().mapToInt(StockShard::getQuantity).sum();
+        if (available < quantity) {
+            log.error("TRACE-ERROR: Rupture de stock pour le produit #{}", product.getId());
+            throw new RuntimeException("Stock insuffisant");
+        }
+        int remaining = quantity;
+        for (StockShard shard : locked) {
+            int taken = Math.min(shard.getQuantity(), remaining);
+            shard.setQuantity(shard.getQuantity() - taken);
+            remaining -= taken;
+            if (remaining == 0) break;
+        }
+        stockShardRepository.saveAll(locked);
+    }
+
+    // Remplace stockQuantity par la somme des sous-compteurs pour les produits striés
+    public Product withReportedStock(Product product) {
+        if (product.isStriped()) {
+            product.setStockQuantity((int) stockShardRepository.sumByProductId(product.getId()));
+        }
+        return product;
+    }
+
+    public List<Product> withReportedStock(List<Product> products) {
+        List<Product> striped = products.stream().filter(Product::isStriped).toList();
+        if (striped.isEmpty()) return products;
+
+        Map<Long, Long> sums = stockShardRepository.sumByProductIds(striped.stream().map(Product::getId).toList()).stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> (Long) row[1]));
+        striped.forEach(p -> p.setStockQuantity(sums.getOrDefault(p.getId(), 0L).intValue()));
+        return products;
+    }
+}
@@ -3,60 +3,107 @@ package ma.enset.productservice.web;
 import lombok.extern.slf4j.Slf4j;
 import ma.enset.productservice.entities.Product;
 import ma.enset.productservice.repository.ProductRepository;
+import ma.enset.productservice.service.StockService;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.oauth2.jwt.Jwt;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Arrays;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Slf4j
 @RestController
 @RequestMapping("/api/products")
 public class ProductController {
+    // Longueur minimale d'un mot pour chercher en préfixe : "c:*" seul parcourt presque tout l'index GIN
+    static final int MIN_PREFIX_LENGTH = 2;
+
     private final ProductRepository productRepository;
+    private final StockService stockService;
 
-    public ProductController(ProductRepository productRepository) {
+    public ProductController(ProductRepository productRepository, StockService stockService) {
         this.productRepository = productRepository;
+        this.stockService = stockService;
     }
 
     @GetMapping
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
     public List<Product> getAllProducts() {
-        return productRepository.findAll();
+        return stockService.withReportedStock(productRepository.findAll());
+    }
+
+    @GetMapping("/search")
+    @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
+    public Page<Product> searchProducts(@RequestParam String q,
+                                        @RequestParam(defaultValue = "0") int page,
+                                        @RequestParam(defaultValue = "20") int size) {
+        PageRequest pageRequest = PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100));
+        String query = toPrefixTsQuery(q);
+        if (query.isEmpty()) return Page.empty(pageRequest);
+
+        Page<Product> result = productRepository.search(query, pageRequest);
+        stockService.withReportedStock(result.getContent());
+        return result;
+    }
+
+    // "clav sans" -> "clav:* & sans:*" : chaque mot est cherché en préfixe (autocomplétion).
+    // Seuls les opérateurs de to_tsquery sont retirés : "3.0", "9.99" ou une adresse e-mail restent entiers
+    // et sont découpés par le même analyseur PostgreSQL que search_vector.
+    // Une saisie faite uniquement de lettres isolées ("c") est cherchée telle quelle, sans préfixe
+    static String toPrefixTsQuery(String q) {
+        List<String> terms = Arrays.stream(q.toLowerCase(Locale.ROOT).split("[\\s&|!():*<>'\\\\]+"))
+                .filter(term -> term.codePoints().anyMatch(Character::isLetterOrDigit))
+                .toList();
+        String suffix = terms.stream().anyMatch(term -> term.codePointCount(0, term.length()) >= MIN_PREFIX_LENGTH) ? ":*" : "";
+        return terms.stream()
+                .map(term -> term + suffix)
+                .collect(Collectors.joining(" & "));
     }
 
     @GetMapping("/{id}")
     @PreAuthorize("hasAnyRole('ADMIN', 'CLIENT')")
     public Product getProductById(@PathVariable Long id) {
-        return productRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Product not found"));
+        return stockService.withReportedStock(productRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Product not found")));
     }
 
     @PostMapping
     @PreAuthorize("hasRole('ADMIN')")
     public Product addProduct(@RequestBody Product product, @AuthenticationPrincipal Jwt jwt) {
         log.info("TRACE-CATALOGUE: ADMIN [{}] ajoute un nouveau produit : {}", jwt.getClaimAsString("preferred_username"), product.getName());
-        return productRepository.save(product);
+        StockService.checkStockShards(product.getStockShards());
+        Product savedProduct = productRepository.save(product);
+        stockService.redistribute(savedProduct);
+        return savedProduct;
     }
 
     @PutMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public Product updateProduct(@PathVariable Long id, @RequestBody Product product, @AuthenticationPrincipal Jwt jwt) {
         log.info("TRACE-CATALOGUE: ADMIN [{}] modifie le produit #{}", jwt.getClaimAsString("preferred_username"), id);
+        StockService.checkStockShards(product.getStockShards());
         Product existingProduct = productRepository.findById(id).orElseThrow();
         existingProduct.setName(product.getName());
         existingProduct.setDescription(product.getDescription());
         existingProduct.setPrice(product.getPrice());
         existingProduct.setStockQuantity(product.getStockQuantity());
-        return productRepository.save(existingProduct);
+        existingProduct.setStockShards(product.getStockShards());
+        Product savedProduct = productRepository.save(existingProduct);
+        stockService.redistribute(savedProduct);
+        return savedProduct;
     }
 
     @DeleteMapping("/{id}")
     @PreAuthorize("hasRole('ADMIN')")
     public void deleteProduct(@PathVariable Long id, @AuthenticationPrincipal Jwt jwt) {
         log.warn("TRACE-CATALOGUE: ADMIN [{}] supprime le produit #{}", jwt.getClaimAsString("preferred_username"), id);
+        stockService.deleteShards(id);
         productRepository.deleteById(id);
     }
 
@@ -66,6 +113,11 @@ public class ProductController {
         Product product = productRepository.findById(id).orElseThrow();
         log.info("TRACE-STOCK: Réduction de stock pour [{}] par l'utilisateur [{}] - Quantité: {}", product.getName(), jwt.getClaimAsString("preferred_username"), quantity);
 
+        if (product.isStriped()) {
+            stockService.reduceStock(product, quantity);
+            return;
+        }
+
         if (product.getStockQuantity() < quantity) {
             log.error("TRACE-ERROR: Rupture de stock pour le produit #{}", id);
             throw new RuntimeException("Stock insuffisant");
@@ -80,7 +132,7 @@ public class ProductController {
         log.info("TRACE-LOG: ADMIN [{}] consulte les statistiques de l'inventaire", jwt.getClaimAsString("preferred_username"));
         return Map.of(
                 "totalProducts", productRepository.count(),
-                "lowStock", productRepository.findAll().stream().filter(p -> p.getStockQuantity() < 5).count()
+                "lowStock", stockService.withReportedStock(productRepository.findAll()).stream().filter(p -> p.getStockQuantity() < 5).count()
         );
     }
 }
\ No newline at end of file
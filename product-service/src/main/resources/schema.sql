@@ -0,0 +1,9 @@
+-- Index plein texte sur le catalogue (exécuté après la mise à jour du schéma par Hibernate)
+-- La colonne générée est recalculée par PostgreSQL à chaque INSERT / UPDATE du produit
+ALTER TABLE product ADD COLUMN IF NOT EXISTS search_vector tsvector
+    GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', coalesce(name, '')), 'A') ||
+        setweight(to_tsvector('simple', coalesce(description, '')), 'B')
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_product_search_vector ON product USING GIN (search_vector);
@@ -0,0 +1,146 @@
+package ma.enset.productservice.service;
+
+import ma.enset.productservice.entities.Product;
+import ma.enset.productservice.entities.StockShard;
+import ma.enset.productservice.repository.ProductRepository;
+import ma.enset.productservice.repository.StockShardRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+// Stock strié sur un vrai PostgreSQL : les décréments conditionnels et les verrous ne se simulent pas
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockService.class)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED) // chaque appel au service valide sa transaction, comme en production
+class StockServiceTests {
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private StockShardRepository stockShardRepository;
+
+    @AfterEach
+    void cleanUp() {
+        stockShardRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void redistributeSpreadsRemainderOverFirstShards() {
+        Product product = stripedProduct(10, 3);
+        assertThat(shardQuantities(product)).containsExactly(4, 3, 3);
+
+        product.setStockQuantity(7);
+        product.setStockShards(2);
+        stockService.redistribute(product);
+        assertThat(shardQuantities(product)).containsExactly(4, 3);
+
+        product.setStockShards(null);
+        stockService.redistribute(product);
+        assertThat(shardQuantities(product)).isEmpty();
+    }
+
+    @Test
+    void shardCountOutsideAllowedRangeIsRejectedWithoutTouchingShards() {
+        Product product = stripedProduct(10, 3);
+
+        for (int shards : new int[]{0, StockService.MAX_STOCK_SHARDS + 1, 10_000_000}) {
+            product.setStockShards(shards);
+            assertThatThrownBy(() -> stockService.redistribute(product))
+                    .hasMessage("stockShards doit être compris entre 1 et " + StockService.MAX_STOCK_SHARDS);
+            assertThat(shardQuantities(product)).containsExactly(4, 3, 3);
+        }
+
+        product.setStockShards(StockService.MAX_STOCK_SHARDS);
+        stockService.redistribute(product);
+        assertThat(shardQuantities(product)).hasSize(StockService.MAX_STOCK_SHARDS);
+    }
+
+    @Test
+    void reductionFallsBackToAnotherShardThatCanServeItAlone() {
+        Product product = stripedProduct(8, 3);
+        // Quel que soit le sous-compteur tiré, seul le n°2 peut servir 4 unités à lui seul :
+        // le chemin rapide doit le trouver au lieu de puiser dans plusieurs sous-compteurs
+        for (int i = 0; i < 20; i++) {
+            setShardQuantities(product, 3, 0, 5);
+            stockService.reduceStock(product, 4);
+            assertThat(shardQuantities(product)).containsExactly(3, 0, 1);
+        }
+    }
+
+    @Test
+    void reductionDrainsSeveralShardsWhenNoneSufficesAlone() {
+        Product product = stripedProduct(6, 3);
+        assertThat(shardQuantities(product)).containsExactly(2, 2, 2);
+
+        stockService.reduceStock(product, 5);
+
+        assertThat(shardQuantities(product)).containsExactly(0, 0, 1);
+    }
+
+    @Test
+    void insufficientStockLeavesEveryShardUnchanged() {
+        Product product = stripedProduct(6, 3);
+
+        assertThatThrownBy(() -> stockService.reduceStock(product, 7))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessage("Stock insuffisant");
+
+        assertThat(shardQuantities(product)).containsExactly(2, 2, 2);
+    }
+
+    @Test
+    void reportedStockIsTheSumOfShards() {
+        Product striped = stripedProduct(9, 3);
+        stockService.reduceStock(striped, 2);
+        Product classic = productRepository.save(Product.builder().name("Classique").stockQuantity(4).build());
+
+        List<Product> reported = stockService.withReportedStock(productRepository.findAll());
+
+        assertThat(reported).filteredOn(p -> p.getId().equals(striped.getId()))
+                .singleElement().extracting(Product::getStockQuantity).isEqualTo(7);
+        assertThat(reported).filteredOn(p -> p.getId().equals(classic.getId()))
+                .singleElement().extracting(Product::getStockQuantity).isEqualTo(4);
+        assertThat(stockService.withReportedStock(productRepository.findById(striped.getId()).orElseThrow())
+                .getStockQuantity()).isEqualTo(7);
+    }
+
+    private Product stripedProduct(int stock, int shards) {
+        Product product = productRepository.save(Product.builder()
+                .name("Promo").stockQuantity(stock).stockShards(shards).build());
+        stockService.redistribute(product);
+        return product;
+    }
+
+    private void setShardQuantities(Product product, int... quantities) {
+        List<StockShard> shards = stockShardRepository.findByProductIdOrderByShardIndex(product.getId());
+        for (int i = 0; i < quantities.length; i++) shards.get(i).setQuantity(quantities[i]);
+        stockShardRepository.saveAll(shards);
+    }
+
+    private List<Integer> shardQuantities(Product product) {
+        return stockShardRepository.findByProductIdOrderByShardIndex(product.getId()).stream()
+                .map(StockShard::getQuantity).toList();
+    }
+}
@@ -0,0 +1,130 @@
+package ma.enset.productservice.service;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.productservice.entities.Product;
+import ma.enset.productservice.entities.StockShard;
+import ma.enset.productservice.repository.ProductRepository;
+import ma.enset.productservice.repository.StockShardRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Vente flash simulée : des threads concurrents vident le stock d'un produit, avec 1 ou plusieurs sous-compteurs.
+// La comparaison de débit, dépendante de la machine, n'est lancée qu'avec mvn test -Pbenchmark
+@Slf4j
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import(StockService.class)
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class StockShardingBenchmarkTests {
+    private static final int THREADS = 8;
+    private static final int STOCK = 800;
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private StockService stockService;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private StockShardRepository stockShardRepository;
+
+    @AfterEach
+    void cleanUp() {
+        stockShardRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void concurrentReductionsNeverOversellWhateverTheShardCount() throws Exception {
+        for (int shards : new int[]{1, 4, 16}) {
+            drainConcurrently(shards);
+        }
+    }
+
+    @Test
+    @Tag("benchmark")
+    void moreShardsGiveHigherThroughput() throws Exception {
+        Map<Integer, Double> throughputByShards = new LinkedHashMap<>();
+        for (int shards : new int[]{1, 4, 16}) {
+            throughputByShards.put(shards, drainConcurrently(shards));
+        }
+        log.info("BENCH-STOCK: {} threads, {} unités -> réductions/s par nombre de sous-compteurs : {}",
+                THREADS, STOCK, throughputByShards);
+
+        // Avec une seule ligne, chaque réduction attend le verrou de la précédente
+        assertThat(throughputByShards.get(16)).isGreaterThan(throughputByShards.get(1));
+    }
+
+    // Vide le stock avec THREADS threads et renvoie le débit en réductions réussies par seconde
+    private double drainConcurrently(int shards) throws Exception {
+        Product product = productRepository.save(Product.builder()
+                .name("Flash " + shards).stockQuantity(STOCK).stockShards(shards).build());
+        if (product.isStriped()) {
+            stockService.redistribute(product);
+        } else {
+            // Référence : tout le stock sur un seul sous-compteur, donc une seule ligne disputée
+            stockShardRepository.save(StockShard.builder().productId(product.getId()).shardIndex(0).quantity(STOCK).build());
+        }
+
+        AtomicInteger sold = new AtomicInteger();
+        AtomicInteger refused = new AtomicInteger();
+        AtomicInteger minObserved = new AtomicInteger(Integer.MAX_VALUE);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(executor.submit(() -> {
+                start.await();
+                while (true) {
+                    try {
+                        stockService.reduceStock(product, 1);
+                        sold.incrementAndGet();
+                    } catch (RuntimeException e) {
+                        assertThat(e).hasMessage("Stock insuffisant");
+                        refused.incrementAndGet();
+                        return null;
+                    }
+                    if (sold.get() % 50 == 0) {
+                        minObserved.accumulateAndGet((int) stockShardRepository.sumByProductId(product.getId()), Math::min);
+                    }
+                }
+            }));
+        }
+
+        long begin = System.nanoTime();
+        start.countDown();
+        for (Future<?> future : futures) future.get(2, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - begin) / 1e9;
+        executor.shutdown();
+
+        assertThat(sold.get()).isEqualTo(STOCK);
+        assertThat(refused.get()).isEqualTo(THREADS);
+        assertThat(minObserved.get()).isGreaterThanOrEqualTo(0);
+        assertThat(stockShardRepository.findByProductIdOrderByShardIndex(product.getId()))
+                .allSatisfy(shard -> assertThat(shard.getQuantity()).isZero());
+        return STOCK / seconds;
+    }
+}
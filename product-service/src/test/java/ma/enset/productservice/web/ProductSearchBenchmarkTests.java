@@ -0,0 +1,128 @@
+package ma.enset.productservice.web;
+
+import lombok.extern.slf4j.Slf4j;
+import ma.enset.productservice.entities.Product;
+import ma.enset.productservice.repository.ProductRepository;
+import ma.enset.productservice.service.StockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Autocomplétion sur un catalogue d'un million de produits : coût d'une frappe (page de 20 + total) selon la saisie,
+// avec et sans la limite de candidats de ProductRepository. Lancé uniquement avec mvn test -Pbenchmark
+@Slf4j
+@Tag("benchmark")
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductController.class, StockService.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSearchBenchmarkTests {
+    private static final int PRODUCTS = 1_000_000;
+    private static final int RUNS = 5;
+    // Saisies successives d'un utilisateur, de la plus vague à la plus précise
+    private static final List<String> KEYSTROKES = List.of("c", "cl", "clav", "clavier", "clavier sans fil", "usb 3.0", "logitech noir");
+
+    // Ancienne requête : classement et total calculés sur toutes les correspondances
+    private static final String UNCAPPED_PAGE = "SELECT * FROM product WHERE search_vector @@ to_tsquery('simple', ?) " +
+            "ORDER BY ts_rank(search_vector, to_tsquery('simple', ?)) DESC, id LIMIT 20";
+    private static final String UNCAPPED_COUNT = "SELECT count(*) FROM product WHERE search_vector @@ to_tsquery('simple', ?)";
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private ProductController productController;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        jdbcTemplate.execute("TRUNCATE product");
+    }
+
+    @Test
+    void candidateCapBoundsTheCostOfVagueKeystrokes() {
+        seedCatalogue();
+
+        Map<String, String> report = new LinkedHashMap<>();
+        double worstUncapped = 0;
+        double worstCapped = 0;
+        for (String keystroke : KEYSTROKES) {
+            String uncappedQuery = keystroke.replaceAll("(\\S+)", "$1:*").replace(" ", " & ");
+            long matches = jdbcTemplate.queryForObject(UNCAPPED_COUNT, Long.class, uncappedQuery);
+            double uncapped = medianMillis(() -> {
+                jdbcTemplate.queryForList(UNCAPPED_PAGE, uncappedQuery, uncappedQuery);
+                return jdbcTemplate.queryForObject(UNCAPPED_COUNT, Long.class, uncappedQuery);
+            });
+            double capped = medianMillis(() -> productController.searchProducts(keystroke, 0, 20).getTotalElements());
+            worstUncapped = Math.max(worstUncapped, uncapped);
+            worstCapped = Math.max(worstCapped, capped);
+            report.put(keystroke, String.format("%d correspondances, %.0f ms -> %.0f ms", matches, uncapped, capped));
+        }
+        log.info("BENCH-SEARCH: {} produits, page de 20 + total par frappe (sans limite -> avec limite) : {}", PRODUCTS, report);
+
+        Page<Product> vague = productController.searchProducts("cl", 0, 20);
+        assertThat(vague.getContent()).hasSize(20);
+        assertThat(vague.getTotalElements()).isEqualTo(ProductRepository.MAX_SEARCH_CANDIDATES);
+        assertThat(worstCapped).isLessThan(worstUncapped / 2);
+    }
+
+    private void seedCatalogue() {
+        // Index recréé après l'insertion : bien plus rapide que de le maintenir ligne par ligne
+        jdbcTemplate.execute("DROP INDEX idx_product_search_vector");
+        jdbcTemplate.update("""
+                INSERT INTO product(name, description, price, stock_quantity)
+                SELECT t[1 + i % array_length(t, 1)] || ' ' || b[1 + (i / 7) % array_length(b, 1)] || ' ' ||
+                       a[1 + (i / 31) % array_length(a, 1)] || ' ' || upper(substr(md5(i::text), 1, 2)) || (i % 997),
+                       'Produit ' || a[1 + (i / 3) % array_length(a, 1)] || ' coloris ' || k[1 + i % array_length(k, 1)] ||
+                       ', garantie ' || (1 + i % 3) || ' ans, compatible ' || b[1 + (i / 11) % array_length(b, 1)],
+                       5 + i % 500, i % 100
+                FROM generate_series(1, ?) i,
+                     (SELECT ARRAY['Clavier','Souris','Ecran','Cable','Casque','Chargeur','Disque','Cle','Carte','Adaptateur',
+                                   'Imprimante','Routeur','Webcam','Enceinte','Micro','Tablette','Batterie','Station','Hub','Support',
+                                   'Tapis','Lampe','Ventilateur','Boitier','Processeur','Memoire','Manette','Projecteur','Scanner','Onduleur'] t,
+                             ARRAY['Logitech','Dell','Samsung','Asus','Lenovo','HP','Acer','Sony','Philips','Anker',
+                                   'Corsair','Razer','Kingston','Sandisk','Belkin','Netgear','Tplink','Xiaomi','Apple','Microsoft'] b,
+                             ARRAY['sans fil','ergonomique','compact','professionnel','gamer','retroeclaire','portable','silencieux','rapide','etanche',
+                                   'pliable','magnetique','premium','mini','ultra','USB 3.0','bluetooth','4K','HDR','double'] a,
+                             ARRAY['noir','blanc','gris','rouge','bleu','vert','argent','or','rose','violet'] k) v
+                """, PRODUCTS);
+        jdbcTemplate.execute("CREATE INDEX idx_product_search_vector ON product USING GIN (search_vector)");
+        jdbcTemplate.execute("ANALYZE product");
+    }
+
+    // Médiane de RUNS mesures, après une exécution d'échauffement
+    private static double medianMillis(Supplier<?> keystroke) {
+        keystroke.get();
+        double[] millis = new double[RUNS];
+        for (int i = 0; i < RUNS; i++) {
+            long begin = System.nanoTime();
+            keystroke.get();
+            millis[i] = (System.nanoTime() - begin) / 1e6;
+        }
+        Arrays.sort(millis);
+        return millis[RUNS / 2];
+    }
+}
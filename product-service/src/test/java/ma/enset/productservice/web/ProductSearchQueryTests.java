@@ -0,0 +1,49 @@
+package ma.enset.productservice.web;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Conversion de la saisie utilisateur en requête to_tsquery : les opérateurs sont retirés, les mots gardés entiers
+class ProductSearchQueryTests {
+
+    @Test
+    void eachTermBecomesAPrefixMatch() {
+        assertThat(ProductController.toPrefixTsQuery("Clav sans fil")).isEqualTo("clav:* & sans:* & fil:*");
+    }
+
+    @Test
+    void tsqueryOperatorsAndPunctuationAreStripped() {
+        assertThat(ProductController.toPrefixTsQuery("mac&book | pro:* !(air) 'x' <-> y"))
+                .isEqualTo("mac:* & book:* & pro:* & air:* & x:* & y:*");
+    }
+
+    @Test
+    void blankOrPunctuationOnlyInputGivesEmptyQuery() {
+        assertThat(ProductController.toPrefixTsQuery("")).isEmpty();
+        assertThat(ProductController.toPrefixTsQuery("   ")).isEmpty();
+        assertThat(ProductController.toPrefixTsQuery(" &|!():*' ")).isEmpty();
+    }
+
+    @Test
+    void versionsAndPricesStayWholeLikeInSearchVector() {
+        // to_tsvector('simple', 'USB 3.0') donne 'usb' et '3.0' : découper en "3" et "0" ne trouverait rien
+        assertThat(ProductController.toPrefixTsQuery("USB 3.0")).isEqualTo("usb:* & 3.0:*");
+        assertThat(ProductController.toPrefixTsQuery("9.99")).isEqualTo("9.99:*");
+    }
+
+    @Test
+    void singleLettersAloneAreNotPrefixExpanded() {
+        // "c:*" correspondrait à presque tout le catalogue
+        assertThat(ProductController.toPrefixTsQuery("c")).isEqualTo("c");
+        assertThat(ProductController.toPrefixTsQuery("É 4")).isEqualTo("é & 4");
+        // Accompagnée d'un mot plus long, la lettre reste un préfixe : "usb 3" trouve "USB 3.0"
+        assertThat(ProductController.toPrefixTsQuery("USB 3")).isEqualTo("usb:* & 3:*");
+    }
+
+    @Test
+    void accentsAndDigitsAreKept() {
+        assertThat(ProductController.toPrefixTsQuery("Écran Télé 4K")).isEqualTo("écran:* & télé:* & 4k:*");
+        assertThat(ProductController.toPrefixTsQuery("iPhone15")).isEqualTo("iphone15:*");
+    }
+}
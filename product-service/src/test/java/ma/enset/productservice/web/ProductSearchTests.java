@@ -0,0 +1,141 @@
+package ma.enset.productservice.web;
+
+import ma.enset.productservice.entities.Product;
+import ma.enset.productservice.repository.ProductRepository;
+import ma.enset.productservice.service.StockService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+// Recherche plein texte sur un vrai PostgreSQL : colonne générée, index GIN et requête native de ProductRepository
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Import({ProductController.class, StockService.class})
+@Testcontainers(disabledWithoutDocker = true)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class ProductSearchTests {
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:15");
+
+    @Autowired
+    private ProductController productController;
+    @Autowired
+    private ProductRepository productRepository;
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @AfterEach
+    void cleanUp() {
+        productRepository.deleteAll();
+    }
+
+    @Test
+    void schemaSqlRunsAfterHibernateAndAddsGeneratedColumnWithGinIndex() {
+        // Si schema.sql passait avant Hibernate, la table n'existerait pas encore et le démarrage échouerait
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT is_generated FROM information_schema.columns WHERE table_name = 'product' AND column_name = 'search_vector'",
+                String.class)).isEqualTo("ALWAYS");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT indexdef FROM pg_indexes WHERE indexname = 'idx_product_search_vector'",
+                String.class)).contains("USING gin (search_vector)");
+
+        // L'entité ignore la colonne : PostgreSQL la calcule à l'INSERT
+        Product product = save("Clavier", "Sans fil");
+        assertThat(jdbcTemplate.queryForObject(
+                "SELECT search_vector::text FROM product WHERE id = ?", String.class, product.getId()))
+                .isEqualTo("'clavier':1A 'fil':3B 'sans':2B");
+    }
+
+    @Test
+    void nameMatchesRankBeforeDescriptionMatchesThenById() {
+        Product inDescription = save("Souris", "Livree avec un clavier");
+        Product firstInName = save("Clavier compact", null);
+        Product secondInName = save("Clavier compact", null);
+
+        assertThat(ids(search("clav", 0, 20)))
+                .containsExactly(firstInName.getId(), secondInName.getId(), inDescription.getId());
+    }
+
+    @Test
+    void pagesAreCountedOnAllMatches() {
+        for (int i = 0; i < 25; i++) save("Cable " + i, null);
+        save("Souris", null);
+
+        Page<Product> lastPage = search("cable", 2, 10);
+
+        assertThat(lastPage.getContent()).hasSize(5);
+        assertThat(lastPage.getTotalElements()).isEqualTo(25);
+        assertThat(lastPage.getTotalPages()).isEqualTo(3);
+    }
+
+    @Test
+    void updatesAndDeletesAreReflectedImmediately() {
+        Product product = save("Clavier", null);
+
+        product.setName("Ecran");
+        productRepository.save(product);
+        assertThat(search("clavier", 0, 20).getContent()).isEmpty();
+        assertThat(ids(search("ecr", 0, 20))).containsExactly(product.getId());
+
+        productRepository.deleteById(product.getId());
+        assertThat(search("ecr", 0, 20).getContent()).isEmpty();
+    }
+
+    @Test
+    void versionsAndPricesAreFoundWhole() {
+        Product usb = save("Hub USB 3.0", null);
+        Product promo = save("Cable", "Offre a 9.99 euros");
+        save("Hub USB 2.0", null);
+
+        assertThat(ids(search("USB 3.0", 0, 20))).containsExactly(usb.getId());
+        assertThat(ids(search("usb 3", 0, 20))).containsExactly(usb.getId());
+        assertThat(ids(search("9.99", 0, 20))).containsExactly(promo.getId());
+    }
+
+    @Test
+    void singleLetterAloneMatchesWholeWordOnly() {
+        Product vitamin = save("Vitamine C", null);
+        save("Clavier", null);
+
+        assertThat(ids(search("c", 0, 20))).containsExactly(vitamin.getId());
+    }
+
+    @Test
+    void rankingAndCountStopAtMaxCandidates() {
+        jdbcTemplate.update("INSERT INTO product(name, price, stock_quantity) " +
+                "SELECT 'Cable ' || i, 5, 1 FROM generate_series(1, ?) i", ProductRepository.MAX_SEARCH_CANDIDATES + 50);
+
+        Page<Product> firstPage = search("cable", 0, 20);
+
+        assertThat(firstPage.getContent()).hasSize(20);
+        assertThat(firstPage.getTotalElements()).isEqualTo(ProductRepository.MAX_SEARCH_CANDIDATES);
+    }
+
+    private Page<Product> search(String q, int page, int size) {
+        return productController.searchProducts(q, page, size);
+    }
+
+    private static List<Long> ids(Page<Product> page) {
+        return page.getContent().stream().map(Product::getId).toList();
+    }
+
+    private Product save(String name, String description) {
+        return productRepository.save(Product.builder().name(name).description(description).price(10).stockQuantity(1).build());
+    }
+}